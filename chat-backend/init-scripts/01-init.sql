@@ -5,10 +5,8 @@
 CREATE EXTENSION IF NOT EXISTS vector;
 
 -- Create schema for vector store
-CREATE SCHEMA IF NOT EXISTS vector_store AUTHORIZATION chat_user;
-
--- Grant permissions
-GRANT ALL PRIVILEGES ON SCHEMA vector_store TO chat_user;
+-- Owned by POSTGRES_USER, the role the entrypoint runs these scripts as
+CREATE SCHEMA IF NOT EXISTS vector_store;
 
 -- Create table for document embeddings (Spring AI standard)
 CREATE TABLE IF NOT EXISTS vector_store.documents (
@@ -50,10 +48,5 @@ CREATE INDEX IF NOT EXISTS idx_messages_conversation_id ON vector_store.messages
 CREATE INDEX IF NOT EXISTS idx_conversations_user_id ON vector_store.conversations(user_id);
 CREATE INDEX IF NOT EXISTS idx_documents_metadata ON vector_store.documents USING GIN(metadata);
 
--- Grant all permissions to chat_user
-GRANT ALL PRIVILEGES ON ALL TABLES IN SCHEMA vector_store TO chat_user;
-GRANT ALL PRIVILEGES ON ALL SEQUENCES IN SCHEMA vector_store TO chat_user;
-GRANT USAGE, CREATE ON SCHEMA vector_store TO chat_user;
-
 -- Log initialization completion
 SELECT 'PostgreSQL initialization completed successfully' AS status;
@@ -0,0 +1,29 @@
+-- Spring AI PgVectorStore default schema
+-- Mirrors what 'spring.ai.vectorstore.pgvector.initialize-schema: true' creates on boot,
+-- so the 'prod' profile can skip schema initialization at startup.
+--
+-- Docker Compose runs it only when the postgres volume is empty. For an existing
+-- volume or an externally managed prod database, apply it once by hand:
+--   psql "$DATABASE_URL" -v ON_ERROR_STOP=1 -f init-scripts/02-spring-ai-vector-store.sql
+-- Every statement is idempotent, so re-running it is safe.
+-- Conversation-scoped retrieval uses hnsw.iterative_scan, which needs pgvector >= 0.8.0.
+
+CREATE EXTENSION IF NOT EXISTS vector;
+CREATE EXTENSION IF NOT EXISTS hstore;
+CREATE EXTENSION IF NOT EXISTS "uuid-ossp";
+
+CREATE TABLE IF NOT EXISTS public.vector_store (
+    id uuid DEFAULT uuid_generate_v4() PRIMARY KEY,
+    content text,
+    metadata json,
+    embedding vector(1536)
+);
+
+CREATE INDEX IF NOT EXISTS spring_ai_vector_index
+ON public.vector_store USING HNSW (embedding vector_cosine_ops);
+
+-- Per-conversation lookups (stored file names) without scanning the embeddings table
+CREATE INDEX IF NOT EXISTS spring_ai_vector_conversation_idx
+ON public.vector_store ((metadata->>'conversationId'));
+
+SELECT 'Spring AI vector store schema ready' AS status;
@@ -0,0 +1,118 @@
+#!/usr/bin/env bash
+# Startup benchmark for chat-backend.
+# Launches the app with the 'prod' profile and measures time-to-first-request
+# (process launch until GET /api/chat/health answers 200), comparing:
+#   jar -> plain boot jar
+#   aot -> extracted jar + Spring AOT + JDK AOT cache (build/aot-cache/app.aot)
+#
+# Usually run through './gradlew startupBenchmark', which builds the cache first.
+# Env: JAVA_BIN, BOOT_JAR, APP_DIR (extracted jar), AOT_CACHE (app.aot), RUNS (default 5), PORT (default 8080),
+#      MODES (default "jar aot"), TIMEOUT_SECONDS (default 120),
+#      LOG_DIR (default build/startup-benchmark, one log per run)
+# Timing uses GNU date when available and falls back to perl (e.g. macOS).
+
+set -euo pipefail
+
+JAVA_BIN="${JAVA_BIN:-java}"
+BOOT_JAR="${BOOT_JAR:?BOOT_JAR must point to the boot jar}"
+APP_DIR="${APP_DIR:?APP_DIR must point to the extracted jar directory}"
+AOT_CACHE="${AOT_CACHE:?AOT_CACHE must point to the app.aot file}"
+RUNS="${RUNS:-5}"
+PORT="${PORT:-8080}"
+MODES="${MODES:-jar aot}"
+TIMEOUT_SECONDS="${TIMEOUT_SECONDS:-120}"
+LOG_DIR="${LOG_DIR:-$(cd "$(dirname "$0")/.." && pwd)/build/startup-benchmark}"
+HEALTH_URL="http://localhost:${PORT}/api/chat/health"
+
+mkdir -p "$LOG_DIR"
+
+# BSD date (macOS) has no %N and prints it literally
+case "$(date +%3N)" in
+    *N*)
+        now_ms() {
+            perl -MTime::HiRes=time -e 'printf "%d\n", time * 1000'
+        }
+        ;;
+    *)
+        now_ms() {
+            date +%s%3N
+        }
+        ;;
+esac
+
+# Starts the app in the background of the current shell and sets PID,
+# so the JVM is a child of this shell and can be waited on.
+# Output goes to LOG_FILE.
+launch() {
+    local mode="$1"
+    case "$mode" in
+        jar)
+            "$JAVA_BIN" -Dspring.profiles.active=prod -Dserver.port="$PORT" \
+                -jar "$BOOT_JAR" > "$LOG_FILE" 2>&1 &
+            ;;
+        aot)
+            (cd "$APP_DIR" && exec "$JAVA_BIN" -XX:AOTCache="$AOT_CACHE" \
+                -Dspring.aot.enabled=true -Dspring.profiles.active=prod -Dserver.port="$PORT" \
+                -jar "$(basename "$BOOT_JAR")" > "$LOG_FILE" 2>&1) &
+            ;;
+        *)
+            echo "Unknown mode: $mode" >&2
+            exit 1
+            ;;
+    esac
+    PID=$!
+}
+
+stop() {
+    kill "$PID" 2> /dev/null || true
+    wait "$PID" 2> /dev/null || true
+    # Never start the next run while the previous JVM may still hold the port
+    while kill -0 "$PID" 2> /dev/null; do
+        sleep 0.05
+    done
+}
+
+port_in_use() {
+    curl -s -o /dev/null "http://localhost:${PORT}/"
+}
+
+# Sets ELAPSED to the time-to-first-request in ms
+measure() {
+    local mode="$1"
+    local run="$2"
+    local start deadline
+    LOG_FILE="${LOG_DIR}/${mode}-${run}.log"
+    if port_in_use; then
+        echo "Port ${PORT} is already in use, stop the running instance first" >&2
+        exit 1
+    fi
+
+    start=$(now_ms)
+    launch "$mode"
+    deadline=$((start + TIMEOUT_SECONDS * 1000))
+
+    until curl -fs -o /dev/null "$HEALTH_URL"; do
+        if [ "$(now_ms)" -gt "$deadline" ] || ! kill -0 "$PID" 2> /dev/null; then
+            stop
+            echo "Startup failed or timed out for mode: $mode, last lines of $LOG_FILE:" >&2
+            tail -n 40 "$LOG_FILE" >&2
+            exit 1
+        fi
+        sleep 0.02
+    done
+    ELAPSED=$(( $(now_ms) - start ))
+
+    stop
+}
+
+printf '%-6s %-10s %s\n' "mode" "avg(ms)" "runs(ms)"
+for mode in $MODES; do
+    total=0
+    samples=()
+    for run in $(seq 1 "$RUNS"); do
+        measure "$mode" "$run"
+        samples+=("$ELAPSED")
+        total=$((total + ELAPSED))
+    done
+    printf '%-6s %-10s %s\n' "$mode" "$((total / RUNS))" "${samples[*]}"
+done
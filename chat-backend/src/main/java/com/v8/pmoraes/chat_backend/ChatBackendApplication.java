@@ -2,8 +2,10 @@ package com.v8.pmoraes.chat_backend;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class ChatBackendApplication {
 
 	public static void main(String[] args) {
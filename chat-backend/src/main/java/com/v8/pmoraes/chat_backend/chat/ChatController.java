@@ -3,18 +3,24 @@ package com.v8.pmoraes.chat_backend.chat;
 import com.v8.pmoraes.chat_backend.dto.ChatPromptRequest;
 import com.v8.pmoraes.chat_backend.dto.ChatResponse;
 import com.v8.pmoraes.chat_backend.dto.ChatWithFileRequest;
+import com.v8.pmoraes.chat_backend.dto.ChatWithFilesRequest;
+import com.v8.pmoraes.chat_backend.exception.AIException;
+import com.v8.pmoraes.chat_backend.exception.ErrorCode;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import java.util.List;
 import java.util.UUID;
+import java.util.regex.Pattern;
 
 /**
  * Controller for chat interactions.
  * Provides endpoints for:
  * - Text-based chat prompts
  * - Chat with file uploads for RAG
+ * - Chat with multiple files or archives for RAG
  * - Agent interactions
  */
 @Slf4j
@@ -23,9 +29,14 @@ import java.util.UUID;
 @CrossOrigin(origins = "*")
 public class ChatController {
 
+    private static final Pattern UUID_PATTERN =
+            Pattern.compile("[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
+
     private final ChatService chatService;
-    public ChatController(ChatService chatService) {
+    private final FileIngestionService fileIngestionService;
+    public ChatController(ChatService chatService, FileIngestionService fileIngestionService) {
         this.chatService = chatService;
+        this.fileIngestionService = fileIngestionService;
     }
     /**
      * Process a text chat prompt.
@@ -59,11 +70,12 @@ public class ChatController {
         
         log.info("Received chat prompt with file: {} ({})", file.getOriginalFilename(), file.getContentType());
         
+        String conversationIdToUse = resolveConversationId(conversationId);
         ChatWithFileRequest request = ChatWithFileRequest.builder()
                 .message(message)
                 .file(file)
                 .userId(userId)
-                .conversationId(conversationId)
+                .conversationId(conversationIdToUse)
                 .fileType(file.getContentType())
                 .build();
         
@@ -72,12 +84,11 @@ public class ChatController {
             String fileContent = chatService.extractFileContent(request);
             
             // Store content in pgvector for future retrieval (one-time operation)
-            String conversationIdToUse = conversationId != null ? conversationId : UUID.randomUUID().toString();
             chatService.storeInPgVector(fileContent, file.getOriginalFilename(), conversationIdToUse);
             
-            // Retrieve ONLY relevant chunks from pgvector using semantic search
+            // Retrieve ONLY relevant chunks of this conversation from pgvector using semantic search
             // This is more efficient than using the full file content
-            String pgvectorContext = chatService.retrieveFromPgVector(message);
+            String pgvectorContext = chatService.retrieveFromPgVector(message, conversationIdToUse);
             
             // Use pgvector context for the RAG - it contains only relevant chunks
             // This significantly reduces token consumption compared to passing the full file
@@ -103,6 +114,87 @@ public class ChatController {
                             .build());
         }
     }
+    /**
+     * Process chat with several files and/or archives (zip, tar, tar.gz) for RAG.
+     * Entries are streamed, embedded in parallel into the conversation's corpus,
+     * and a single question is answered over that corpus.
+     * 
+     * @param message The user's question/prompt
+     * @param files The files or archives to process
+     * @param userId The user identifier
+     * @param conversationId Optional conversation context
+     * @return ChatResponse with augmented context from the conversation's files
+     */
+    @PostMapping("/prompt-with-files")
+    public ResponseEntity<ChatResponse> promptWithFiles(
+            @RequestParam String message,
+            @RequestParam List<MultipartFile> files,
+            @RequestParam String userId,
+            @RequestParam(required = false) String conversationId) {
+        
+        log.info("Received chat prompt with {} file(s)", files.size());
+        
+        String conversationIdToUse = resolveConversationId(conversationId);
+        ChatWithFilesRequest request = ChatWithFilesRequest.builder()
+                .message(message)
+                .files(files)
+                .userId(userId)
+                .conversationId(conversationIdToUse)
+                .build();
+        
+        try {
+            // Extract and embed every entry in parallel (skips files already stored for this conversation)
+            fileIngestionService.ingest(request);
+            
+            // Retrieve relevant chunks from this conversation's corpus only
+            String ragContext = chatService.retrieveFromPgVector(message, conversationIdToUse);
+            if (ragContext.isEmpty()) {
+                // The corpus was just ingested, an empty context means retrieval failed
+                throw new AIException(
+                        ErrorCode.RAG_ERROR.getCode(),
+                        "No content could be retrieved for the uploaded files"
+                );
+            }
+            
+            ChatPromptRequest promptRequest = ChatPromptRequest.builder()
+                    .message(message)
+                    .userId(userId)
+                    .conversationId(conversationIdToUse)
+                    .build();
+            
+            ChatResponse response = chatService.processPromptWithRag(promptRequest, ragContext);
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            log.error("Error processing files: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ChatResponse.builder()
+                            .success(false)
+                            .error(e.getMessage())
+                            .build());
+        }
+    }
+    /**
+     * Use the client's conversation id or start a new conversation.
+     * The id ends up in vector store filter expressions, so only canonical UUIDs
+     * (the format this controller issues) are accepted.
+     * 
+     * @param conversationId Optional conversation id from the request
+     * @return A conversation id safe to use in queries
+     * @throws AIException with INVALID_CONVERSATION_ID (400) for anything else
+     */
+    private String resolveConversationId(String conversationId) {
+        if (conversationId == null) {
+            return UUID.randomUUID().toString();
+        }
+        if (!UUID_PATTERN.matcher(conversationId).matches()) {
+            throw new AIException(
+                    ErrorCode.INVALID_CONVERSATION_ID.getCode(),
+                    ErrorCode.INVALID_CONVERSATION_ID.getMessage()
+            );
+        }
+        return conversationId;
+    }
     /**
      * Health check endpoint.
      */
@@ -25,7 +25,11 @@ import java.util.UUID;
 public class ChatService {
     
     private final ChatClient chatClient;
+    // No QuestionAnswerAdvisor: RAG prompts already carry their (conversation-scoped) context
+    private final ChatClient ragChatClient;
     private final VectorStore vectorStore;
+    private final ConversationDocumentStore documentStore;
+    private final IngestionProperties ingestionProperties;
     
     // System template for code-assistant scope
     private static final String SYSTEM_TEMPLATE = """
@@ -55,12 +59,18 @@ public class ChatService {
         - Structure complex answers with clear sections
         """;
     
-    public ChatService(ChatClient.Builder chatClient, VectorStore vectorStore) {
+    public ChatService(ChatClient.Builder chatClient, VectorStore vectorStore,
+                       ConversationDocumentStore documentStore, IngestionProperties ingestionProperties) {
+        this.ragChatClient = chatClient.clone()
+            .defaultSystem(SYSTEM_TEMPLATE)
+            .build();
         this.chatClient = chatClient
             .defaultAdvisors(QuestionAnswerAdvisor.builder(vectorStore).build())
             .defaultSystem(SYSTEM_TEMPLATE)
             .build();
         this.vectorStore = vectorStore;
+        this.documentStore = documentStore;
+        this.ingestionProperties = ingestionProperties;
     }
     
     /**
@@ -97,6 +107,7 @@ public class ChatService {
     
     /**
      * Process a prompt with RAG context from uploaded files.
+     * Only the given context is used, the vector store advisor is not applied.
      * 
      * @param request The chat request
      * @param ragContext Additional context from RAG
@@ -117,7 +128,7 @@ public class ChatService {
                     %s
                     """, ragContext, request.getMessage());
             
-            String response = chatClient.prompt()
+            String response = ragChatClient.prompt()
                     .user(augmentedPrompt)
                     .call()
                     .content();
@@ -174,6 +185,7 @@ public class ChatService {
     /**
      * Extract content from an uploaded file for RAG processing.
      * Supports: TXT, JSON, XML, and other text-based formats
+     * Files larger than chat.ingestion.max-file-size are rejected.
      * 
      * @param request The chat request with file
      * @return Extracted file content as String
@@ -186,6 +198,14 @@ public class ChatService {
             
             log.info("Extracting content from file: {} ({})", originalFilename, contentType);
             
+            // The multipart limit is sized for archives, a single file keeps its own cap
+            if (request.getFile().getSize() > ingestionProperties.maxFileSize()) {
+                throw new AIException(
+                        ErrorCode.FILE_PROCESSING_ERROR.getCode(),
+                        "File is larger than " + ingestionProperties.maxFileSize() + " bytes"
+                );
+            }
+            
             // Convert file bytes to String
             String fileContent = new String(request.getFile().getBytes());
             
@@ -232,11 +252,7 @@ public class ChatService {
             
             // Check if this file is already stored for this conversation
             // This prevents duplicate embeddings and reduces costs
-            List<Document> existing = vectorStore.similaritySearch(fileName);
-            boolean alreadyStored = existing.stream()
-                    .anyMatch(doc -> doc.getMetadata() != null &&
-                            fileName.equals(doc.getMetadata().get("fileName")) &&
-                            conversationId.equals(doc.getMetadata().get("conversationId")));
+            boolean alreadyStored = documentStore.findStoredFileNames(conversationId).contains(fileName);
             
             if (alreadyStored) {
                 log.info("File {} already stored in pgvector for conversation {}. Reusing existing embeddings.", 
@@ -244,14 +260,8 @@ public class ChatService {
                 return false; // Reusing existing content
             }
             
-            log.info("Storing new file content in pgvector: {} for conversation: {}", fileName, conversationId);            
-            Document document = new Document(fileContent);
-
-            document.getMetadata().put("fileName", fileName);
-            document.getMetadata().put("conversationId", conversationId);
-            document.getMetadata().put("timestamp", String.valueOf(System.currentTimeMillis()));
-            
-            vectorStore.add(List.of(document));            
+            log.info("Storing new file content in pgvector: {} for conversation: {}", fileName, conversationId);
+            documentStore.store(fileContent, fileName, conversationId);
             log.info("Successfully stored {} characters in pgvector", fileContent.length());
             return true; // Content was newly stored
             
@@ -300,4 +310,42 @@ public class ChatService {
             return "";
         }
     }
+
+    /**
+     * Retrieve relevant context from pgvector, restricted to a single conversation.
+     * Used when several files were uploaded together so the answer only draws
+     * from that conversation's corpus. Each chunk is labelled with its file name.
+     * 
+     * @param query The search query
+     * @param conversationId The conversation whose documents are searched
+     * @return Concatenated relevant context from pgvector
+     */
+    public String retrieveFromPgVector(String query, String conversationId) {
+        try {
+            log.info("Retrieving context from pgvector for conversation {} and query: {}", conversationId, query);
+            
+            List<Document> results = documentStore.search(query, conversationId);
+            
+            if (results.isEmpty()) {
+                log.warn("No relevant documents found in pgvector for conversation: {}", conversationId);
+                return "";
+            }
+            
+            StringBuilder context = new StringBuilder();
+            for (Document doc : results) {
+                context.append("FILE: ")
+                       .append(doc.getMetadata().get("fileName"))
+                       .append("\n")
+                       .append(doc.getText())
+                       .append("\n\n---\n\n");
+            }
+            
+            log.info("Retrieved {} documents from pgvector", results.size());
+            return context.toString();
+            
+        } catch (Exception e) {
+            log.error("Error retrieving from pgvector: {}", e.getMessage(), e);
+            return "";
+        }
+    }
 }
@@ -0,0 +1,120 @@
+package com.v8.pmoraes.chat_backend.chat;
+
+import com.v8.pmoraes.chat_backend.exception.AIException;
+import com.v8.pmoraes.chat_backend.exception.ErrorCode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.transformer.splitter.TokenTextSplitter;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.filter.FilterExpressionBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Stores uploaded file content in pgvector under a conversation.
+ * Shared by the single-file and multi-file upload paths so both write
+ * the same metadata ({@code fileName}, {@code conversationId}, {@code timestamp}).
+ * Content is split into token chunks first, so no embedding input exceeds
+ * the model limit and retrieval returns chunks instead of whole files.
+ */
+@Slf4j
+@Component
+public class ConversationDocumentStore {
+
+    // Spring AI PgVectorStore default table (public.vector_store, not the vector_store schema
+    // from 01-init.sql); uses the conversationId index from init-scripts/02-spring-ai-vector-store.sql
+    private static final String STORED_FILE_NAMES_SQL = """
+            SELECT DISTINCT metadata->>'fileName'
+            FROM public.vector_store
+            WHERE metadata->>'conversationId' = ?
+            """;
+
+    // With an HNSW index the metadata filter is applied after the index scan, which only
+    // returns hnsw.ef_search candidates; keep scanning until topK rows match (pgvector >= 0.8)
+    private static final String ITERATIVE_SCAN_SQL = "SET LOCAL hnsw.iterative_scan = strict_order";
+
+    private final VectorStore vectorStore;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TokenTextSplitter splitter;
+    private final int contextTopK;
+
+    public ConversationDocumentStore(VectorStore vectorStore, JdbcTemplate jdbcTemplate,
+                                     TransactionTemplate transactionTemplate, IngestionProperties properties) {
+        this.vectorStore = vectorStore;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.contextTopK = properties.contextTopK();
+        this.splitter = TokenTextSplitter.builder()
+                .withChunkSize(properties.chunkSize())
+                .build();
+    }
+
+    /**
+     * Split, embed and store the content of a file for a conversation.
+     * Every chunk carries the file's metadata.
+     *
+     * @param content The file content
+     * @param fileName The name of the file for metadata
+     * @param conversationId The conversation ID for context grouping
+     * @return Number of chunks stored
+     */
+    public int store(String content, String fileName, String conversationId) {
+        Document document = new Document(content);
+        document.getMetadata().put("fileName", fileName);
+        document.getMetadata().put("conversationId", conversationId);
+        document.getMetadata().put("timestamp", String.valueOf(System.currentTimeMillis()));
+
+        List<Document> chunks = splitter.split(document);
+        vectorStore.add(chunks);
+        log.debug("Stored {} characters from {} in pgvector as {} chunk(s)", content.length(), fileName, chunks.size());
+        return chunks.size();
+    }
+
+    /**
+     * Find the names of all files already stored for a conversation.
+     * Reads the metadata directly, so it costs no embedding call and is not
+     * capped by a similarity search top-k.
+     *
+     * @param conversationId The conversation to look up
+     * @return Mutable set of stored file names
+     * @throws AIException if the lookup fails
+     */
+    public Set<String> findStoredFileNames(String conversationId) {
+        try {
+            return new HashSet<>(jdbcTemplate.queryForList(STORED_FILE_NAMES_SQL, String.class, conversationId));
+        } catch (Exception e) {
+            log.error("Error looking up stored files for conversation {}: {}", conversationId, e.getMessage(), e);
+            throw new AIException(
+                    ErrorCode.RAG_ERROR.getCode(),
+                    "Failed to look up stored files: " + e.getMessage()
+            );
+        }
+    }
+
+    /**
+     * Find the chunks of a conversation most similar to the query.
+     * Runs in a transaction so the iterative index scan setting applies to the search,
+     * otherwise chunks of other conversations can fill every HNSW candidate.
+     *
+     * @param query The search query
+     * @param conversationId The conversation whose chunks are searched
+     * @return Up to {@code chat.ingestion.context-top-k} chunks
+     */
+    public List<Document> search(String query, String conversationId) {
+        SearchRequest searchRequest = SearchRequest.builder()
+                .query(query)
+                .topK(contextTopK)
+                .filterExpression(new FilterExpressionBuilder().eq("conversationId", conversationId).build())
+                .build();
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.execute(ITERATIVE_SCAN_SQL);
+            return vectorStore.similaritySearch(searchRequest);
+        });
+    }
+}
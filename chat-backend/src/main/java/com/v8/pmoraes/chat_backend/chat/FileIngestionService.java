@@ -0,0 +1,253 @@
+package com.v8.pmoraes.chat_backend.chat;
+
+import com.v8.pmoraes.chat_backend.dto.ChatWithFilesRequest;
+import com.v8.pmoraes.chat_backend.exception.AIException;
+import com.v8.pmoraes.chat_backend.exception.ErrorCode;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Service for ingesting several files and/or archives into pgvector in one request.
+ * Archives (zip, tar, tar.gz) are streamed entry by entry, never unpacked as a whole,
+ * and entries are embedded in parallel with bounded concurrency.
+ */
+@Slf4j
+@Service
+public class FileIngestionService {
+
+    private final ConversationDocumentStore documentStore;
+    private final int maxConcurrency;
+    private final int maxEntries;
+    private final int maxEntrySize;
+
+    public FileIngestionService(ConversationDocumentStore documentStore, IngestionProperties properties) {
+        this.documentStore = documentStore;
+        this.maxConcurrency = properties.maxConcurrency();
+        this.maxEntries = properties.maxEntries();
+        this.maxEntrySize = properties.maxEntrySize();
+    }
+
+    /**
+     * Extract every file/archive entry of the request and store it in pgvector
+     * under the request's conversation.
+     * At most {@code maxConcurrency} entries are held in memory and embedded at once;
+     * entries already stored for the conversation are skipped.
+     *
+     * @param request The chat request with files, conversationId must be set
+     * @return Number of entries newly stored
+     * @throws AIException if no entry was stored and none was already stored, or embedding fails
+     */
+    public int ingest(ChatWithFilesRequest request) {
+        if (request.getFiles() == null || request.getFiles().isEmpty()) {
+            throw new AIException(
+                    ErrorCode.INVALID_MESSAGE.getCode(),
+                    "At least one file must be uploaded"
+            );
+        }
+
+        String conversationId = request.getConversationId();
+        Set<String> alreadyStored = documentStore.findStoredFileNames(conversationId);
+        Set<String> seen = new HashSet<>();
+        AtomicInteger reused = new AtomicInteger();
+        Semaphore permits = new Semaphore(maxConcurrency);
+        List<Future<?>> tasks = new ArrayList<>();
+
+        log.info("Ingesting {} upload(s) for conversation {} (max concurrency: {})",
+                request.getFiles().size(), conversationId, maxConcurrency);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            EntryConsumer consumer = (fileName, content) -> {
+                if (!seen.add(fileName)) {
+                    log.debug("Entry {} appears more than once in the upload, skipping", fileName);
+                    return;
+                }
+                if (alreadyStored.contains(fileName)) {
+                    log.debug("Entry {} already stored for conversation {}, skipping", fileName, conversationId);
+                    reused.incrementAndGet();
+                    return;
+                }
+                if (tasks.size() >= maxEntries) {
+                    throw new AIException(
+                            ErrorCode.FILE_PROCESSING_ERROR.getCode(),
+                            "Too many files in upload, the limit is " + maxEntries
+                    );
+                }
+                // Acquire before reading the entry so memory stays bounded by the permits
+                permits.acquire();
+                try {
+                    String text = readText(fileName, content);
+                    if (text == null) {
+                        permits.release();
+                        return;
+                    }
+                    tasks.add(executor.submit(() -> {
+                        try {
+                            documentStore.store(text, fileName, conversationId);
+                        } finally {
+                            permits.release();
+                        }
+                    }));
+                } catch (IOException | RuntimeException e) {
+                    permits.release();
+                    throw e;
+                }
+            };
+
+            for (MultipartFile file : request.getFiles()) {
+                extractEntries(file, consumer);
+            }
+        } catch (IOException e) {
+            log.error("Error reading uploaded files: {}", e.getMessage(), e);
+            throw new AIException(
+                    ErrorCode.FILE_PROCESSING_ERROR.getCode(),
+                    "Failed to read uploaded files: " + e.getMessage()
+            );
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AIException(
+                    ErrorCode.FILE_PROCESSING_ERROR.getCode(),
+                    "File ingestion was interrupted"
+            );
+        }
+
+        awaitAll(tasks);
+        if (tasks.isEmpty() && reused.get() == 0) {
+            throw new AIException(
+                    ErrorCode.FILE_PROCESSING_ERROR.getCode(),
+                    "No readable text file found in upload"
+            );
+        }
+        log.info("Stored {} new entries in pgvector for conversation {}", tasks.size(), conversationId);
+        return tasks.size();
+    }
+
+    /**
+     * Stream the entries of an uploaded file to the consumer.
+     * Plain files produce a single entry named after the file.
+     */
+    private void extractEntries(MultipartFile file, EntryConsumer consumer) throws IOException, InterruptedException {
+        String name = file.getOriginalFilename() != null ? file.getOriginalFilename() : "upload";
+        String lowerName = name.toLowerCase(Locale.ROOT);
+
+        try (InputStream in = new BufferedInputStream(file.getInputStream())) {
+            if (lowerName.endsWith(".zip")) {
+                log.info("Streaming zip archive: {}", name);
+                ZipInputStream zip = new ZipInputStream(in);
+                ZipEntry entry;
+                while ((entry = zip.getNextEntry()) != null) {
+                    String entryName = normalizeEntryName(entry.getName());
+                    if (!entry.isDirectory() && isRelevantEntry(entryName)) {
+                        consumer.accept(entryName, zip);
+                    }
+                }
+            } else if (lowerName.endsWith(".tar") || lowerName.endsWith(".tar.gz") || lowerName.endsWith(".tgz")) {
+                log.info("Streaming tar archive: {}", name);
+                InputStream source = lowerName.endsWith(".tar") ? in : new GZIPInputStream(in);
+                TarArchiveInputStream tar = new TarArchiveInputStream(source);
+                TarArchiveEntry entry;
+                while ((entry = tar.getNextEntry()) != null) {
+                    String entryName = normalizeEntryName(entry.getName());
+                    if (entry.isFile() && isRelevantEntry(entryName)) {
+                        consumer.accept(entryName, tar);
+                    }
+                }
+            } else {
+                consumer.accept(name, in);
+            }
+        }
+    }
+
+    /**
+     * Strip the leading "./" of archives created from the current directory
+     * (e.g. {@code tar czf snapshot.tgz .}), so "./src/A.java" is stored as "src/A.java".
+     */
+    private String normalizeEntryName(String entryName) {
+        String normalized = entryName;
+        while (normalized.startsWith("./")) {
+            normalized = normalized.substring(2);
+        }
+        return normalized;
+    }
+
+    /**
+     * Skip archive metadata and hidden files (e.g. __MACOSX/, .git/, .DS_Store).
+     */
+    private boolean isRelevantEntry(String entryName) {
+        for (String segment : entryName.split("/")) {
+            if (segment.equals(".")) {
+                continue;
+            }
+            if (segment.startsWith(".") || segment.equals("__MACOSX")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Read a single entry as UTF-8 text.
+     *
+     * @return The text, or null when the entry is empty, too large or binary
+     */
+    private String readText(String fileName, InputStream content) throws IOException {
+        byte[] bytes = content.readNBytes(maxEntrySize + 1);
+        if (bytes.length > maxEntrySize) {
+            log.warn("Skipping {}: larger than {} bytes", fileName, maxEntrySize);
+            return null;
+        }
+        for (byte b : bytes) {
+            if (b == 0) {
+                log.debug("Skipping binary entry: {}", fileName);
+                return null;
+            }
+        }
+        String text = new String(bytes, StandardCharsets.UTF_8);
+        return text.isBlank() ? null : text;
+    }
+
+    private void awaitAll(List<Future<?>> tasks) {
+        for (Future<?> task : tasks) {
+            try {
+                task.get();
+            } catch (ExecutionException e) {
+                log.error("Error storing content in pgvector: {}", e.getCause().getMessage(), e.getCause());
+                throw new AIException(
+                        ErrorCode.RAG_ERROR.getCode(),
+                        "Failed to store content in vector database: " + e.getCause().getMessage()
+                );
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AIException(
+                        ErrorCode.FILE_PROCESSING_ERROR.getCode(),
+                        "File ingestion was interrupted"
+                );
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface EntryConsumer {
+        void accept(String fileName, InputStream content) throws IOException, InterruptedException;
+    }
+}
@@ -0,0 +1,28 @@
+package com.v8.pmoraes.chat_backend.chat;
+
+import jakarta.validation.constraints.Positive;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * File ingestion settings, bound from {@code chat.ingestion.*} in application.yml.
+ * Every value must be set and positive, startup fails otherwise
+ * (a max-concurrency of 0 would block uploads forever).
+ *
+ * @param maxConcurrency Entries held in memory and embedded at the same time
+ * @param maxEntries Maximum number of entries stored per request
+ * @param maxEntrySize Maximum size of a single multi-file upload or archive entry in bytes
+ * @param maxFileSize Maximum size of the file sent to the single-file endpoint in bytes
+ * @param chunkSize Target chunk size in tokens, each chunk is embedded separately
+ * @param contextTopK Number of chunks retrieved as context for a question
+ */
+@Validated
+@ConfigurationProperties(prefix = "chat.ingestion")
+public record IngestionProperties(
+        @Positive int maxConcurrency,
+        @Positive int maxEntries,
+        @Positive int maxEntrySize,
+        @Positive int maxFileSize,
+        @Positive int chunkSize,
+        @Positive int contextTopK) {
+}
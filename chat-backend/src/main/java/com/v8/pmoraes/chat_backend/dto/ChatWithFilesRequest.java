@@ -0,0 +1,27 @@
+package com.v8.pmoraes.chat_backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.web.multipart.MultipartFile;
+import java.util.List;
+
+/**
+ * Request DTO for chat with multiple files and/or archives (zip, tar, tar.gz).
+ * Every entry is embedded into the same conversation-scoped corpus.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChatWithFilesRequest {
+    
+    private String message;
+    
+    private List<MultipartFile> files;
+    
+    private String userId;
+    
+    private String conversationId;
+}
@@ -6,6 +6,7 @@ package com.v8.pmoraes.chat_backend.exception;
  */
 public enum ErrorCode {
     INVALID_MESSAGE("INVALID_MESSAGE", "Message wasn't valid or was empty"),
+    INVALID_CONVERSATION_ID("INVALID_CONVERSATION_ID", "Conversation id must be a UUID"),
     TIMED_OUT("TIMED_OUT", "Chat response timed out"),
     LLM_ERROR("LLM_ERROR", "Couldn't get a precise answer from LLM"),
     TOKEN_LIMIT("TOKEN_LIMIT", "Reached the maximum amount of tokens"),
@@ -0,0 +1,121 @@
+package com.v8.pmoraes.chat_backend.chat;
+
+import com.v8.pmoraes.chat_backend.dto.ChatPromptRequest;
+import com.v8.pmoraes.chat_backend.dto.ChatResponse;
+import com.v8.pmoraes.chat_backend.dto.ChatWithFilesRequest;
+import com.v8.pmoraes.chat_backend.exception.GlobalExceptionHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ChatControllerTest {
+
+	private static final String CONVERSATION_ID = "3f1c2a4e-8b7d-4c6e-9a1f-2b3c4d5e6f70";
+	private static final String QUESTION = "What does A do?";
+
+	private ChatService chatService;
+	private FileIngestionService fileIngestionService;
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	void setUp() {
+		chatService = mock(ChatService.class);
+		fileIngestionService = mock(FileIngestionService.class);
+		mockMvc = MockMvcBuilders.standaloneSetup(new ChatController(chatService, fileIngestionService))
+				.setControllerAdvice(new GlobalExceptionHandler())
+				.build();
+	}
+
+	@Test
+	void promptWithFilesAnswersOverTheConversationCorpus() throws Exception {
+		when(chatService.retrieveFromPgVector(QUESTION, CONVERSATION_ID)).thenReturn("FILE: A.java\nclass A {}");
+		when(chatService.processPromptWithRag(any(ChatPromptRequest.class), anyString()))
+				.thenReturn(ChatResponse.builder().content("answer").conversationId(CONVERSATION_ID).success(true).build());
+
+		mockMvc.perform(multipart("/chat/prompt-with-files")
+						.file(source("A.java"))
+						.file(source("B.java"))
+						.param("message", QUESTION)
+						.param("userId", "user-1")
+						.param("conversationId", CONVERSATION_ID))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content").value("answer"));
+
+		ArgumentCaptor<ChatWithFilesRequest> ingested = ArgumentCaptor.forClass(ChatWithFilesRequest.class);
+		verify(fileIngestionService).ingest(ingested.capture());
+		assertThat(ingested.getValue().getFiles()).hasSize(2);
+		assertThat(ingested.getValue().getConversationId()).isEqualTo(CONVERSATION_ID);
+		verify(chatService).processPromptWithRag(any(ChatPromptRequest.class), eq("FILE: A.java\nclass A {}"));
+	}
+
+	@Test
+	void promptWithFilesRejectsConversationIdsThatAreNotUuids() throws Exception {
+		mockMvc.perform(multipart("/chat/prompt-with-files")
+						.file(source("A.java"))
+						.param("message", QUESTION)
+						.param("userId", "user-1")
+						.param("conversationId", "x' || @.conversationId != \"x"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.code").value("INVALID_CONVERSATION_ID"));
+
+		verifyNoInteractions(fileIngestionService, chatService);
+	}
+
+	@Test
+	void promptWithFilesFailsWhenNothingIsRetrieved() throws Exception {
+		when(chatService.retrieveFromPgVector(QUESTION, CONVERSATION_ID)).thenReturn("");
+
+		mockMvc.perform(multipart("/chat/prompt-with-files")
+						.file(source("A.java"))
+						.param("message", QUESTION)
+						.param("userId", "user-1")
+						.param("conversationId", CONVERSATION_ID))
+				.andExpect(status().isInternalServerError())
+				.andExpect(jsonPath("$.success").value(false));
+
+		verify(chatService, never()).processPromptWithRag(any(ChatPromptRequest.class), anyString());
+	}
+
+	@Test
+	void promptWithFileRetrievesOnlyFromItsConversation() throws Exception {
+		when(chatService.extractFileContent(any())).thenReturn("class A {}");
+		when(chatService.retrieveFromPgVector(QUESTION, CONVERSATION_ID)).thenReturn("FILE: A.java\nclass A {}");
+		when(chatService.processPromptWithRag(any(ChatPromptRequest.class), anyString()))
+				.thenReturn(ChatResponse.builder().content("answer").success(true).build());
+
+		mockMvc.perform(multipart("/chat/prompt-with-file")
+						.file(new MockMultipartFile("file", "A.java", "text/plain", bytes("class A {}")))
+						.param("message", QUESTION)
+						.param("userId", "user-1")
+						.param("conversationId", CONVERSATION_ID))
+				.andExpect(status().isOk());
+
+		verify(chatService).retrieveFromPgVector(QUESTION, CONVERSATION_ID);
+		verify(chatService, never()).retrieveFromPgVector(QUESTION);
+	}
+
+	private static MockMultipartFile source(String name) {
+		return new MockMultipartFile("files", name, "text/plain", bytes("class " + name + " {}"));
+	}
+
+	private static byte[] bytes(String content) {
+		return content.getBytes(StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,100 @@
+package com.v8.pmoraes.chat_backend.chat;
+
+import com.v8.pmoraes.chat_backend.exception.AIException;
+import com.v8.pmoraes.chat_backend.exception.ErrorCode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.filter.FilterExpressionBuilder;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ConversationDocumentStoreTest {
+
+	private static final String CONVERSATION_ID = "3f1c2a4e-8b7d-4c6e-9a1f-2b3c4d5e6f70";
+
+	private final IngestionProperties properties = new IngestionProperties(2, 3, 1024, 4096, 50, 5);
+
+	private VectorStore vectorStore;
+	private JdbcTemplate jdbcTemplate;
+	private TransactionTemplate transactionTemplate;
+	private ConversationDocumentStore documentStore;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		vectorStore = mock(VectorStore.class);
+		jdbcTemplate = mock(JdbcTemplate.class);
+		transactionTemplate = mock(TransactionTemplate.class);
+		when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+				((TransactionCallback<Object>) invocation.getArgument(0)).doInTransaction(null));
+
+		documentStore = new ConversationDocumentStore(vectorStore, jdbcTemplate, transactionTemplate, properties);
+	}
+
+	@Test
+	void searchFiltersByConversationWithContextTopK() {
+		Document chunk = new Document("class A {}");
+		when(vectorStore.similaritySearch(any(SearchRequest.class))).thenReturn(List.of(chunk));
+
+		List<Document> results = documentStore.search("What does A do?", CONVERSATION_ID);
+
+		ArgumentCaptor<SearchRequest> request = ArgumentCaptor.forClass(SearchRequest.class);
+		verify(vectorStore).similaritySearch(request.capture());
+		assertThat(results).containsExactly(chunk);
+		assertThat(request.getValue().getQuery()).isEqualTo("What does A do?");
+		assertThat(request.getValue().getTopK()).isEqualTo(properties.contextTopK());
+		assertThat(request.getValue().getFilterExpression())
+				.isEqualTo(new FilterExpressionBuilder().eq("conversationId", CONVERSATION_ID).build());
+	}
+
+	@Test
+	void searchEnablesIterativeIndexScanInTheSameTransaction() {
+		when(vectorStore.similaritySearch(any(SearchRequest.class))).thenReturn(List.of());
+
+		documentStore.search("query", CONVERSATION_ID);
+
+		InOrder order = inOrder(transactionTemplate, jdbcTemplate, vectorStore);
+		order.verify(transactionTemplate).execute(any());
+		order.verify(jdbcTemplate).execute(contains("hnsw.iterative_scan"));
+		order.verify(vectorStore).similaritySearch(any(SearchRequest.class));
+	}
+
+	@Test
+	void findsStoredFileNamesInTheSpringAiTable() {
+		when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq(CONVERSATION_ID)))
+				.thenReturn(List.of("A.java", "B.java"));
+
+		assertThat(documentStore.findStoredFileNames(CONVERSATION_ID)).containsExactlyInAnyOrder("A.java", "B.java");
+		verify(jdbcTemplate).queryForList(contains("FROM public.vector_store"), eq(String.class), eq(CONVERSATION_ID));
+	}
+
+	@Test
+	void failsWhenStoredFileNamesCannotBeRead() {
+		when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq(CONVERSATION_ID)))
+				.thenThrow(new DataAccessResourceFailureException("database down"));
+
+		assertThatThrownBy(() -> documentStore.findStoredFileNames(CONVERSATION_ID))
+				.isInstanceOf(AIException.class)
+				.extracting(e -> ((AIException) e).getCode())
+				.isEqualTo(ErrorCode.RAG_ERROR.getCode());
+	}
+}
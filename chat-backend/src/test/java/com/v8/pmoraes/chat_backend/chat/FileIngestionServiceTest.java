@@ -0,0 +1,285 @@
+package com.v8.pmoraes.chat_backend.chat;
+
+import com.v8.pmoraes.chat_backend.dto.ChatWithFilesRequest;
+import com.v8.pmoraes.chat_backend.exception.AIException;
+import com.v8.pmoraes.chat_backend.exception.ErrorCode;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FileIngestionServiceTest {
+
+	private static final String CONVERSATION_ID = "conversation-1";
+	private static final String JAVA_SOURCE = "public class Sample { void run() { System.out.println(\"hello\"); } }";
+
+	private final IngestionProperties properties = new IngestionProperties(2, 3, 1024, 4096, 50, 8);
+
+	private VectorStore vectorStore;
+	private JdbcTemplate jdbcTemplate;
+	private Queue<Document> stored;
+	private FileIngestionService service;
+
+	@BeforeEach
+	void setUp() {
+		vectorStore = mock(VectorStore.class);
+		jdbcTemplate = mock(JdbcTemplate.class);
+		stored = new ConcurrentLinkedQueue<>();
+		doAnswer(invocation -> {
+			List<Document> documents = invocation.getArgument(0);
+			stored.addAll(documents);
+			return null;
+		}).when(vectorStore).add(anyList());
+
+		ConversationDocumentStore documentStore = new ConversationDocumentStore(vectorStore, jdbcTemplate,
+				mock(TransactionTemplate.class), properties);
+		service = new FileIngestionService(documentStore, properties);
+	}
+
+	@Test
+	void storesPlainFilesWithConversationMetadata() {
+		int count = service.ingest(request(text("A.java", JAVA_SOURCE), text("B.java", JAVA_SOURCE)));
+
+		assertThat(count).isEqualTo(2);
+		assertThat(storedFileNames()).containsExactlyInAnyOrder("A.java", "B.java");
+		assertThat(stored).allSatisfy(doc ->
+				assertThat(doc.getMetadata()).containsEntry("conversationId", CONVERSATION_ID));
+	}
+
+	@Test
+	void streamsZipEntries() throws IOException {
+		Map<String, byte[]> entries = new LinkedHashMap<>();
+		entries.put("src/", new byte[0]);
+		entries.put("src/A.java", bytes(JAVA_SOURCE));
+		entries.put("src/B.java", bytes(JAVA_SOURCE));
+
+		int count = service.ingest(request(file("module.zip", zip(entries))));
+
+		assertThat(count).isEqualTo(2);
+		assertThat(storedFileNames()).containsExactlyInAnyOrder("src/A.java", "src/B.java");
+	}
+
+	@Test
+	void streamsTarEntries() throws IOException {
+		int count = service.ingest(request(file("module.tar", tar(Map.of("src/A.java", bytes(JAVA_SOURCE))))));
+
+		assertThat(count).isEqualTo(1);
+		assertThat(storedFileNames()).containsExactly("src/A.java");
+	}
+
+	@Test
+	void streamsGzippedTarEntries() throws IOException {
+		int count = service.ingest(request(file("module.tar.gz", gzip(tar(Map.of("src/A.java", bytes(JAVA_SOURCE)))))));
+
+		assertThat(count).isEqualTo(1);
+		assertThat(storedFileNames()).containsExactly("src/A.java");
+	}
+
+	@Test
+	void streamsCurrentDirectoryTarSnapshots() throws IOException {
+		Map<String, byte[]> entries = new LinkedHashMap<>();
+		entries.put("./src/A.java", bytes(JAVA_SOURCE));
+		entries.put("./.git/config", bytes(JAVA_SOURCE));
+
+		int count = service.ingest(request(file("snapshot.tgz", gzip(tar(entries)))));
+
+		assertThat(count).isEqualTo(1);
+		assertThat(storedFileNames()).containsExactly("src/A.java");
+	}
+
+	@Test
+	void streamsCurrentDirectoryZipSnapshots() throws IOException {
+		Map<String, byte[]> entries = new LinkedHashMap<>();
+		entries.put("./", new byte[0]);
+		entries.put("./src/A.java", bytes(JAVA_SOURCE));
+		entries.put("./src/B.java", bytes(JAVA_SOURCE));
+		entries.put("./.DS_Store", bytes(JAVA_SOURCE));
+
+		int count = service.ingest(request(file("snapshot.zip", zip(entries))));
+
+		assertThat(count).isEqualTo(2);
+		assertThat(storedFileNames()).containsExactlyInAnyOrder("src/A.java", "src/B.java");
+	}
+
+	@Test
+	void skipsHiddenMetadataBinaryAndOversizedEntries() throws IOException {
+		Map<String, byte[]> entries = new LinkedHashMap<>();
+		entries.put("src/A.java", bytes(JAVA_SOURCE));
+		entries.put(".git/config", bytes(JAVA_SOURCE));
+		entries.put("src/.DS_Store", bytes(JAVA_SOURCE));
+		entries.put("__MACOSX/src/._A.java", bytes(JAVA_SOURCE));
+		entries.put("lib/native.so", new byte[] {0x7f, 'E', 'L', 'F', 0, 1, 2});
+		entries.put("src/Huge.java", bytes("x".repeat(properties.maxEntrySize() + 1)));
+
+		int count = service.ingest(request(file("module.zip", zip(entries))));
+
+		assertThat(count).isEqualTo(1);
+		assertThat(storedFileNames()).containsExactly("src/A.java");
+	}
+
+	@Test
+	void splitsLargeEntriesIntoChunksKeepingMetadata() {
+		service.ingest(request(text("Large.java", "word ".repeat(150))));
+
+		assertThat(stored).hasSizeGreaterThan(1);
+		assertThat(stored).allSatisfy(doc -> {
+			assertThat(doc.getMetadata()).containsEntry("fileName", "Large.java");
+			assertThat(doc.getMetadata()).containsEntry("conversationId", CONVERSATION_ID);
+		});
+	}
+
+	@Test
+	void rejectsUploadsAboveMaxEntries() {
+		MultipartFile[] files = new MultipartFile[properties.maxEntries() + 1];
+		for (int i = 0; i < files.length; i++) {
+			files[i] = text("File" + i + ".java", JAVA_SOURCE);
+		}
+
+		assertThatThrownBy(() -> service.ingest(request(files)))
+				.isInstanceOf(AIException.class)
+				.extracting(e -> ((AIException) e).getCode())
+				.isEqualTo(ErrorCode.FILE_PROCESSING_ERROR.getCode());
+	}
+
+	@Test
+	void storesDuplicateNamesWithinARequestOnce() {
+		int count = service.ingest(request(text("A.java", JAVA_SOURCE), text("A.java", JAVA_SOURCE)));
+
+		assertThat(count).isEqualTo(1);
+		assertThat(storedFileNames()).containsExactly("A.java");
+	}
+
+	@Test
+	void skipsEntriesAlreadyStoredForTheConversation() {
+		when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq(CONVERSATION_ID)))
+				.thenReturn(List.of("A.java"));
+
+		int count = service.ingest(request(text("A.java", JAVA_SOURCE), text("B.java", JAVA_SOURCE)));
+
+		assertThat(count).isEqualTo(1);
+		assertThat(storedFileNames()).containsExactly("B.java");
+	}
+
+	@Test
+	void acceptsUploadsWhenEveryEntryIsAlreadyStored() {
+		when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq(CONVERSATION_ID)))
+				.thenReturn(List.of("A.java"));
+
+		int count = service.ingest(request(text("A.java", JAVA_SOURCE)));
+
+		assertThat(count).isZero();
+		assertThat(stored).isEmpty();
+	}
+
+	@Test
+	void rejectsUploadsWithoutReadableEntries() {
+		MultipartFile binary = file("image.png", new byte[] {(byte) 0x89, 'P', 'N', 'G', 0, 0});
+
+		assertThatThrownBy(() -> service.ingest(request(binary, text("empty.txt", "   "))))
+				.isInstanceOf(AIException.class)
+				.extracting(e -> ((AIException) e).getCode())
+				.isEqualTo(ErrorCode.FILE_PROCESSING_ERROR.getCode());
+	}
+
+	@Test
+	void propagatesEmbeddingFailures() {
+		doThrow(new IllegalStateException("embedding failed")).when(vectorStore).add(anyList());
+
+		assertThatThrownBy(() -> service.ingest(request(text("A.java", JAVA_SOURCE))))
+				.isInstanceOf(AIException.class)
+				.hasMessageContaining("embedding failed")
+				.extracting(e -> ((AIException) e).getCode())
+				.isEqualTo(ErrorCode.RAG_ERROR.getCode());
+	}
+
+	private Set<String> storedFileNames() {
+		return stored.stream()
+				.map(doc -> (String) doc.getMetadata().get("fileName"))
+				.collect(Collectors.toSet());
+	}
+
+	private static ChatWithFilesRequest request(MultipartFile... files) {
+		return ChatWithFilesRequest.builder()
+				.message("What does this code do?")
+				.files(List.of(files))
+				.userId("user-1")
+				.conversationId(CONVERSATION_ID)
+				.build();
+	}
+
+	private static MultipartFile text(String name, String content) {
+		return file(name, bytes(content));
+	}
+
+	private static MultipartFile file(String name, byte[] content) {
+		return new MockMultipartFile("files", name, null, content);
+	}
+
+	private static byte[] bytes(String content) {
+		return content.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static byte[] zip(Map<String, byte[]> entries) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (ZipOutputStream zip = new ZipOutputStream(out)) {
+			for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+				zip.putNextEntry(new ZipEntry(entry.getKey()));
+				zip.write(entry.getValue());
+				zip.closeEntry();
+			}
+		}
+		return out.toByteArray();
+	}
+
+	private static byte[] gzip(byte[] content) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+			gzip.write(content);
+		}
+		return out.toByteArray();
+	}
+
+	private static byte[] tar(Map<String, byte[]> entries) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (TarArchiveOutputStream tar = new TarArchiveOutputStream(out)) {
+			for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+				TarArchiveEntry tarEntry = new TarArchiveEntry(entry.getKey());
+				tarEntry.setSize(entry.getValue().length);
+				tar.putArchiveEntry(tarEntry);
+				tar.write(entry.getValue());
+				tar.closeArchiveEntry();
+			}
+			tar.finish();
+		}
+		return out.toByteArray();
+	}
+}